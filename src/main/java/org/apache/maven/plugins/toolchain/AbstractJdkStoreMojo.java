@@ -0,0 +1,176 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.toolchain.ToolchainPrivate;
+import org.apache.maven.toolchain.java.DefaultJavaToolChain;
+import org.apache.maven.toolchain.model.ToolchainModel;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Base class for goals working with JDK stores and ~/.m2/toolchains.xml.
+ */
+public abstract class AbstractJdkStoreMojo extends AbstractMojo {
+  /**
+   * The current build session instance. This is used for toolchain manager API calls.
+   */
+  @Parameter(defaultValue = "${session}", readonly = true, required = true)
+  protected MavenSession session;
+  /**
+   * writable JDK store for new installs, default is ~/.m2/jdks, or use -Dtoolchain.jdks.dir
+   */
+  @Parameter(property = "toolchain.jdks.dir")
+  private File jdksDir;
+  /**
+   * read-only JDK stores, such as JDKs baked into a container image, looked up in order before jdksDir,
+   * or use -Dtoolchain.jdks.stores with comma separated directories
+   */
+  @Parameter(property = "toolchain.jdks.stores")
+  private List<File> jdkStores;
+
+  /**
+   * all store layers in lookup order: read-only stores first, then the writable store
+   *
+   * @return JDK stores
+   */
+  protected List<JdkStore> getJdkStores() {
+    List<JdkStore> stores = new ArrayList<>();
+    if (jdkStores != null) {
+      for (File jdkStore : jdkStores) {
+        stores.add(new JdkStore(jdkStore.toPath(), true));
+      }
+    }
+    stores.add(getWritableJdkStore());
+    return stores;
+  }
+
+  protected JdkStore getWritableJdkStore() {
+    Path root = jdksDir != null ? jdksDir.toPath() : JdkStore.defaultJdksDir();
+    return new JdkStore(root, false);
+  }
+
+  protected ToolchainPrivate addJDKToToolchains(Path jdkHome, String version, String vendor) throws Exception {
+    final ToolchainPrivate javaToolChain = buildJdkToolchain(version, vendor, jdkHome.toAbsolutePath().toString());
+    addJDKToToolchainsXml(jdkHome.toAbsolutePath().toString(), version, vendor);
+    return javaToolChain;
+  }
+
+  /**
+   * append JDK toolchain to ~/.m2/toolchains.xml unless the same JDK is already declared
+   *
+   * @param jdkHome JDK home
+   * @param version version
+   * @param vendor  vendor
+   */
+  protected void addJDKToToolchainsXml(String jdkHome, String version, String vendor) throws Exception {
+    File toolchainsXml = new File(new File(System.getProperty("user.home")), ".m2/toolchains.xml");
+    synchronized (AbstractJdkStoreMojo.class) {
+      Xpp3Dom toolchainsDom;
+      if (toolchainsXml.exists()) {
+        try (FileReader reader = new FileReader(toolchainsXml)) {
+          toolchainsDom = Xpp3DomBuilder.build(reader);
+        }
+      } else {
+        //noinspection ResultOfMethodCallIgnored
+        toolchainsXml.getParentFile().mkdirs();
+        toolchainsDom = new Xpp3Dom("toolchains");
+      }
+      for (Xpp3Dom toolchainDom : toolchainsDom.getChildren("toolchain")) {
+        if (isSameJdkToolchain(toolchainDom, jdkHome, version, vendor)) {
+          return;
+        }
+      }
+      toolchainsDom.addChild(jdkToolchainDom(version, vendor, jdkHome));
+      try (FileWriter writer = new FileWriter(toolchainsXml)) {
+        Xpp3DomWriter.write(writer, toolchainsDom);
+      }
+    }
+  }
+
+  protected ToolchainPrivate buildJdkToolchain(String version, String vendor, String jdkHome) {
+    DefaultJavaToolChain javaToolChain = new DefaultJavaToolChain(buildJdkToolchainModel(version, vendor, jdkHome),
+      new ConsoleLogger());
+    javaToolChain.setJavaHome(jdkHome);
+    return javaToolChain;
+  }
+
+  protected ToolchainModel buildJdkToolchainModel(String version, String vendor, String jdkHome) {
+    ToolchainModel toolchainModel = new ToolchainModel();
+    toolchainModel.setType("jdk");
+    Properties provides = new Properties();
+    provides.setProperty("version", version);
+    provides.setProperty("vendor", vendor);
+    toolchainModel.setProvides(provides);
+    Xpp3Dom configuration = new Xpp3Dom("configuration");
+    configuration.addChild(createElement("jdkHome", jdkHome));
+    toolchainModel.setConfiguration(configuration);
+    return toolchainModel;
+  }
+
+  protected static Xpp3Dom jdkToolchainDom(String version, String vendor, String jdkHome) {
+    Xpp3Dom toolchainDom = new Xpp3Dom("toolchain");
+    toolchainDom.addChild(createElement("type", "jdk"));
+    Xpp3Dom providesDom = new Xpp3Dom("provides");
+    providesDom.addChild(createElement("version", version));
+    providesDom.addChild(createElement("vendor", vendor));
+    Xpp3Dom configurationDom = new Xpp3Dom("configuration");
+    configurationDom.addChild(createElement("jdkHome", jdkHome));
+    toolchainDom.addChild(providesDom);
+    toolchainDom.addChild(configurationDom);
+    return toolchainDom;
+  }
+
+  private static boolean isSameJdkToolchain(Xpp3Dom toolchainDom, String jdkHome, String version, String vendor) {
+    Xpp3Dom providesDom = toolchainDom.getChild("provides");
+    Xpp3Dom configurationDom = toolchainDom.getChild("configuration");
+    if (providesDom == null || configurationDom == null) {
+      return false;
+    }
+    return "jdk".equals(childValue(toolchainDom, "type"))
+      && jdkHome.equals(childValue(configurationDom, "jdkHome"))
+      && version.equals(childValue(providesDom, "version"))
+      && vendor.equals(childValue(providesDom, "vendor"));
+  }
+
+  private static String childValue(Xpp3Dom dom, String name) {
+    Xpp3Dom child = dom.getChild(name);
+    return child == null ? null : child.getValue();
+  }
+
+  private static Xpp3Dom createElement(String name, String value) {
+    Xpp3Dom dom = new Xpp3Dom(name);
+    dom.setValue(value);
+    return dom;
+  }
+}
@@ -0,0 +1,49 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decompression backend for gzip compressed archives, such as JDK tar.gz files.
+ *
+ * @see Decompressors
+ */
+public interface Decompressor {
+  /**
+   * @return backend name, used by -Dtoolchain.decompressor
+   */
+  String getName();
+
+  /**
+   * @return true if the backend can be used on this machine
+   */
+  boolean isAvailable();
+
+  /**
+   * open decompressed stream of the archive file
+   *
+   * @param archiveFile gzip compressed file
+   * @return decompressed stream, closing it releases all resources of the backend
+   */
+  InputStream decompress(File archiveFile) throws IOException;
+}
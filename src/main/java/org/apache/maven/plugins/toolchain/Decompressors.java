@@ -0,0 +1,86 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Selects decompressor for an archive: external pigz/unpigz for large archives when found on PATH,
+ * otherwise the in-process inflater. Use -Dtoolchain.decompressor=inflater|pigz|unpigz to choose a backend.
+ */
+public class Decompressors {
+  /**
+   * below this size, starting an external process costs more than it saves
+   */
+  static final long EXTERNAL_THRESHOLD = 16 * 1024 * 1024;
+
+  private static final Decompressor INFLATER = new InflaterDecompressor();
+
+  private static final List<Decompressor> EXTERNALS = Arrays.<Decompressor>asList(
+    new ProcessDecompressor("pigz", "-d", "-c"),
+    new ProcessDecompressor("unpigz", "-c"));
+
+  private Decompressors() {
+  }
+
+  /**
+   * select decompressor, a chosen backend that is unknown or not found on PATH is reported and automatic
+   * selection is used instead
+   *
+   * @param archiveFile tar.gz archive
+   * @param log         log
+   * @return decompressor
+   */
+  public static Decompressor select(File archiveFile, Log log) {
+    String name = System.getProperty("toolchain.decompressor");
+    if (name != null && !name.isEmpty() && !name.equals("auto")) {
+      if (name.equals(INFLATER.getName())) {
+        return INFLATER;
+      }
+      boolean known = false;
+      for (Decompressor decompressor : EXTERNALS) {
+        if (decompressor.getName().equals(name)) {
+          if (decompressor.isAvailable()) {
+            return decompressor;
+          }
+          known = true;
+        }
+      }
+      if (known) {
+        log.warn("Decompressor '" + name + "' not found on PATH, falling back to automatic selection");
+      } else {
+        log.warn("Unknown decompressor '" + name + "', expected auto, inflater, pigz or unpigz,"
+          + " falling back to automatic selection");
+      }
+    }
+    if (archiveFile.length() >= EXTERNAL_THRESHOLD) {
+      for (Decompressor decompressor : EXTERNALS) {
+        if (decompressor.isAvailable()) {
+          return decompressor;
+        }
+      }
+    }
+    return INFLATER;
+  }
+}
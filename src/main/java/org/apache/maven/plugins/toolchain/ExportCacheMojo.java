@@ -0,0 +1,48 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+
+/**
+ * Export JDKs of all JDK stores, with their checksums and toolchains entries, into one cache bundle for CI systems.
+ */
+@Mojo(name = "export-cache", requiresProject = false, threadSafe = true)
+public class ExportCacheMojo extends AbstractJdkStoreMojo {
+  /**
+   * cache bundle file, or use -Dtoolchain.cache.file
+   */
+  @Parameter(property = "toolchain.cache.file", defaultValue = "${user.home}/.m2/jdks-cache.zip")
+  private File cacheFile;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    try {
+      int count = new JdkCacheBundle(getLog()).exportBundle(getJdkStores(), cacheFile);
+      getLog().info(count + " JDK(s) exported to " + cacheFile.getAbsolutePath());
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to export JDK cache bundle " + cacheFile, e);
+    }
+  }
+}
@@ -6,7 +6,6 @@ import com.google.gson.JsonObject;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
@@ -23,16 +22,17 @@ import org.apache.http.util.EntityUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.settings.Proxy;
 import org.codehaus.plexus.archiver.AbstractUnArchiver;
-import org.codehaus.plexus.archiver.tar.TarGZipUnArchiver;
 import org.codehaus.plexus.archiver.zip.ZipUnArchiver;
 import org.codehaus.plexus.logging.Logger;
 import org.codehaus.plexus.logging.console.ConsoleLogger;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -78,25 +78,39 @@ public class FoojayService {
   }
 
   public Path downloadAndExtractJdk(String version, String vendor) throws Exception {
-    log.info("Begin to install JDK " + version);
-    final String[] fileNameAndDownloadUrl = parseFileNameAndDownloadUrl(version, vendor);
+    return downloadAndExtractJdk(version, vendor, JdkStore.defaultJdksDir());
+  }
+
+  public Path downloadAndExtractJdk(String version, String vendor, Path jdksDir) throws Exception {
+    return downloadAndExtractJdk(version, vendor, jdksDir, Platform.host());
+  }
+
+  /**
+   * install JDK for the platform, host-only post-install steps are skipped for other platforms
+   *
+   * @param version  version
+   * @param vendor   vendor
+   * @param jdksDir  JDK store directory
+   * @param platform target platform
+   * @return JDK home
+   */
+  public Path downloadAndExtractJdk(String version, String vendor, Path jdksDir, Platform platform) throws Exception {
+    log.info("Begin to install JDK " + version + " for " + platform);
+    final String[] fileNameAndDownloadUrl = parseFileNameAndDownloadUrl(version, vendor, platform);
     if (fileNameAndDownloadUrl == null) {
       return null;
     }
     String jdkFileName = fileNameAndDownloadUrl[0];
     String downloadUrl = fileNameAndDownloadUrl[1];
-    final Path userHome = Paths.get(System.getProperty("user.home"));
-    Path jdksDir = userHome.resolve(".m2").resolve("jdks");
     if (!jdksDir.toFile().exists()) {
-      //noinspection ResultOfMethodCallIgnored
-      jdksDir.toFile().mkdir();
+      Files.createDirectories(jdksDir);
     }
     Path jdkHome = downloadAndExtract(downloadUrl, jdkFileName, jdksDir);
     if (jdkHome.resolve("Contents").resolve("Home").toFile().exists()) {  // mac tgz
       jdkHome = jdkHome.resolve("Contents").resolve("Home");
     }
     log.info("JDK installed: " + jdkHome.toAbsolutePath());
-    if (vendor.contains("graalvm")) {
+    if (vendor.contains("graalvm") && platform.isHost()) {
       Path guBin = jdkHome.resolve("bin").resolve("gu");
       ProcessBuilder pb = new ProcessBuilder(guBin.toAbsolutePath().toString(), "install", "native-image", "--ignore");
       pb.environment().put("GRAALVM_HOME", jdkHome.toAbsolutePath().toString());
@@ -106,36 +120,18 @@ public class FoojayService {
   }
 
   public String[] parseFileNameAndDownloadUrl(String version, String vendor) {
-    String os = getOsName();
-    String archiveType = "tar.gz";
-    if (os.equals("windows")) {
-      archiveType = "zip";
-    }
-    String archName = getArchName();
-    String bitness = archName.equals("x32") ? "32" : "64";
-    String libcType;
-    switch (os) {
-      case "linux":
-        libcType = "glibc";
-        break;
-      case "windows":
-        libcType = "c_std_lib";
-        break;
-      case "macos":
-        libcType = "libc";
-        break;
-      default:
-        libcType = "";
-        break;
-    }
+    return parseFileNameAndDownloadUrl(version, vendor, Platform.host());
+  }
+
+  public String[] parseFileNameAndDownloadUrl(String version, String vendor, Platform platform) {
     String queryUrl = "https://api.foojay.io/disco/v3.0/packages?"
       + "distribution=" + vendor
       + "&version=" + version
-      + "&operating_system=" + os
-      + "&architecture=" + archName
-      + "&bitness=" + bitness
-      + "&archive_type=" + archiveType
-      + "&libc_type=" + libcType
+      + "&operating_system=" + platform.getOs()
+      + "&architecture=" + platform.getArch()
+      + "&bitness=" + platform.getBitness()
+      + "&archive_type=" + platform.getArchiveType()
+      + "&libc_type=" + platform.getLibc()
       + "&latest=overall&package_type=jdk&discovery_scope_id=directly_downloadable&match=any&javafx_bundled=false&directly_downloadable=true&release_status=ga";
     HttpGet request = new HttpGet(queryUrl);
     try {
@@ -163,7 +159,10 @@ public class FoojayService {
     File destFile = destDir.resolve(fileName).toFile();
     if (!destFile.exists()) {
       log.info("Download " + fileName + " from " + link);
-      FileUtils.copyURLToFile(new URL(link), destFile);
+      // download to temp file first, an interrupted background download must not leave a broken archive
+      File partFile = destDir.resolve(fileName + ".part").toFile();
+      FileUtils.copyURLToFile(new URL(link), partFile);
+      Files.move(partFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
     }
     log.info("Extract " + fileName);
     String extractDir = getRootNameInArchive(destFile);
@@ -176,7 +175,8 @@ public class FoojayService {
   private String getRootNameInArchive(File archiveFile) throws Exception {
     ArchiveInputStream archiveInputStream;
     if (archiveFile.getName().endsWith("tar.gz") || archiveFile.getName().endsWith("tgz")) {
-      archiveInputStream = new TarArchiveInputStream(new GzipCompressorInputStream(Files.newInputStream(archiveFile.toPath())));
+      // only the first entries are read, not worth starting an external decompressor
+      archiveInputStream = new TarArchiveInputStream(new InflaterDecompressor().decompress(archiveFile));
     } else {
       archiveInputStream = new ZipArchiveInputStream((Files.newInputStream(archiveFile.toPath())));
     }
@@ -195,41 +195,21 @@ public class FoojayService {
   }
 
 
-  private void extractArchiveFile(File sourceFile, File destDir) {
+  private void extractArchiveFile(File sourceFile, File destDir) throws IOException {
     String fileName = sourceFile.getName();
-    final AbstractUnArchiver unArchiver;
     if (fileName.endsWith(".tgz") || fileName.endsWith(".tar.gz")) {
-      unArchiver = new TarGZipUnArchiver();
-    } else {
-      unArchiver = new ZipUnArchiver();
+      Decompressor decompressor = Decompressors.select(sourceFile, log);
+      log.debug("Decompress " + fileName + " with " + decompressor.getName());
+      try (InputStream in = decompressor.decompress(sourceFile)) {
+        new TarExtractor().extract(in, destDir);
+      }
+      return;
     }
+    final AbstractUnArchiver unArchiver = new ZipUnArchiver();
     unArchiver.enableLogging(new ConsoleLogger(Logger.LEVEL_ERROR, "console"));
     unArchiver.setSourceFile(sourceFile);
     unArchiver.setDestDirectory(destDir);
     unArchiver.setOverwrite(true);
     unArchiver.extract();
   }
-
-  private String getOsName() {
-    String os = System.getProperty("os.name").toLowerCase();
-    if (os.contains("mac")) {
-      return "macos";
-    } else if (os.contains("windows")) {
-      return "windows";
-    } else {
-      return "linux";
-    }
-  }
-
-  private String getArchName() {
-    String arch = System.getProperty("os.arch").toLowerCase();
-    if (arch.contains("x86_32") || arch.contains("amd32")) {
-      arch = "x32";
-    } else if (arch.contains("aarch64") || arch.contains("arm64")) {
-      arch = "aarch64";
-    } else {
-      arch = "x64";
-    }
-    return arch;
-  }
 }
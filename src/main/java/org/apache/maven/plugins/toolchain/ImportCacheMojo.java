@@ -0,0 +1,85 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Import a cache bundle created by export-cache into the writable JDK store, and add its toolchains entries
+ * to ~/.m2/toolchains.xml with jdkHome rewritten to the writable store.
+ */
+@Mojo(name = "import-cache", requiresProject = false, threadSafe = true)
+public class ImportCacheMojo extends AbstractJdkStoreMojo {
+  /**
+   * cache bundle file, or use -Dtoolchain.cache.file
+   */
+  @Parameter(property = "toolchain.cache.file", defaultValue = "${user.home}/.m2/jdks-cache.zip")
+  private File cacheFile;
+  /**
+   * threads to extract JDKs in parallel, or use -Dtoolchain.cache.threads
+   */
+  @Parameter(property = "toolchain.cache.threads")
+  private int threads;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (!cacheFile.exists()) {
+      getLog().warn("JDK cache bundle not found: " + cacheFile.getAbsolutePath());
+      return;
+    }
+    JdkStore writableStore = getWritableJdkStore();
+    int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    try {
+      Properties index = new JdkCacheBundle(getLog()).importBundle(cacheFile, writableStore, threadCount);
+      String toolchainsXml = JdkCacheBundle.readEntry(cacheFile, JdkCacheBundle.TOOLCHAINS_FILE);
+      if (toolchainsXml != null) {
+        addToolchains(Xpp3DomBuilder.build(new StringReader(toolchainsXml)), writableStore.getRoot());
+      }
+      getLog().info(index.size() + " JDK(s) imported from " + cacheFile.getAbsolutePath());
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to import JDK cache bundle " + cacheFile, e);
+    }
+  }
+
+  private void addToolchains(Xpp3Dom toolchainsDom, Path jdksDir) throws Exception {
+    String jdksPath = jdksDir.toAbsolutePath().toString();
+    for (Xpp3Dom toolchainDom : toolchainsDom.getChildren("toolchain")) {
+      Xpp3Dom providesDom = toolchainDom.getChild("provides");
+      Xpp3Dom configurationDom = toolchainDom.getChild("configuration");
+      if (providesDom == null || configurationDom == null || configurationDom.getChild("jdkHome") == null) {
+        continue;
+      }
+      String jdkHome = configurationDom.getChild("jdkHome").getValue()
+        .replace(JdkCacheBundle.JDKS_DIR_PLACEHOLDER, jdksPath);
+      addJDKToToolchainsXml(Paths.get(jdkHome).toAbsolutePath().normalize().toString(),
+        providesDom.getChild("version").getValue(), providesDom.getChild("vendor").getValue());
+    }
+  }
+}
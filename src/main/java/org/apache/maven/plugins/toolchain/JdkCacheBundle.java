@@ -0,0 +1,521 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Single-file cache bundle of JDK stores for CI systems.
+ * The bundle is a zip file with the following deterministic layout:
+ * <pre>
+ *   jdks.properties             vendor@version=JDK home, relative to the store
+ *   &lt;partition&gt;/jdks.properties index of a platform partition, such as linux-aarch64-musl
+ *   checksums.properties        JDK directory, relative to the store=fingerprint of the JDK directory
+ *   toolchains.xml              toolchains entries, jdkHome prefixed with ${jdks.dir}
+ *   jdks/...                    JDK directories, partitions included, entries sorted by path
+ * </pre>
+ * The fingerprint is a SHA-256 over the sorted relative paths, file sizes, CRC32 of file contents and
+ * symbolic link targets, so a JDK already present is only kept if its contents match the bundle.
+ */
+public class JdkCacheBundle {
+  public static final String CHECKSUMS_FILE = "checksums.properties";
+  public static final String TOOLCHAINS_FILE = "toolchains.xml";
+  public static final String JDKS_DIR_PLACEHOLDER = "${jdks.dir}";
+  private static final String JDKS_PREFIX = "jdks/";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Log log;
+
+  public JdkCacheBundle(Log log) {
+    this.log = log;
+  }
+
+  /**
+   * export indexed JDKs of the stores and their platform partitions into one bundle,
+   * earlier stores win for the same vendor@version
+   *
+   * @param jdkStores  JDK stores in lookup order
+   * @param bundleFile bundle file
+   * @return count of exported JDK directories
+   */
+  public int exportBundle(List<JdkStore> jdkStores, File bundleFile) throws Exception {
+    // partition, empty for the store itself -> index
+    Map<String, Properties> indexes = new TreeMap<>();
+    indexes.put("", new Properties());
+    // JDK directory, relative to the store -> store root
+    Map<String, Path> jdkDirs = new TreeMap<>();
+    for (JdkStore jdkStore : jdkStores) {
+      exportIndex(jdkStore, "", jdkStore.getRoot(), indexes, jdkDirs);
+      for (JdkStore partition : jdkStore.getPartitions()) {
+        exportIndex(partition, partition.getRoot().getFileName() + "/", jdkStore.getRoot(), indexes, jdkDirs);
+      }
+    }
+    Properties checksums = new Properties();
+    for (Map.Entry<String, Path> entry : jdkDirs.entrySet()) {
+      checksums.setProperty(entry.getKey(), fingerprint(entry.getValue().resolve(entry.getKey())));
+    }
+    File parentDir = bundleFile.getAbsoluteFile().getParentFile();
+    if (!parentDir.exists()) {
+      Files.createDirectories(parentDir.toPath());
+    }
+    try (ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(bundleFile)) {
+      for (Map.Entry<String, Properties> entry : indexes.entrySet()) {
+        writeEntry(zipOut, entry.getKey() + JdkStore.INDEX_FILE, storeSorted(entry.getValue()));
+      }
+      writeEntry(zipOut, CHECKSUMS_FILE, storeSorted(checksums));
+      // partition JDKs are built for other platforms, only JDKs of the store itself are toolchains
+      writeEntry(zipOut, TOOLCHAINS_FILE, toolchainsXml(indexes.get("")));
+      for (Map.Entry<String, Path> entry : jdkDirs.entrySet()) {
+        log.info("Export JDK " + entry.getKey() + " from " + entry.getValue());
+        writeDirectory(zipOut, entry.getValue(), entry.getValue().resolve(entry.getKey()));
+      }
+    }
+    return jdkDirs.size();
+  }
+
+  private void exportIndex(JdkStore jdkStore, String partition, Path storeRoot, Map<String, Properties> indexes,
+                           Map<String, Path> jdkDirs) throws IOException {
+    if (!indexes.containsKey(partition)) {
+      indexes.put(partition, new Properties());
+    }
+    Properties index = indexes.get(partition);
+    Properties storeIndex = jdkStore.loadIndex();
+    for (String key : toMap(storeIndex).keySet()) {
+      String home = storeIndex.getProperty(key);
+      String jdkDir = partition + topDirectory(home);
+      if (index.containsKey(key) || !jdkStore.getRoot().resolve(home).toFile().exists()) {
+        continue;
+      }
+      if (jdkDirs.containsKey(jdkDir) && !jdkDirs.get(jdkDir).equals(storeRoot)) {
+        log.warn("Skip " + partition + key + ", JDK directory " + jdkDir + " already exported from "
+          + jdkDirs.get(jdkDir));
+        continue;
+      }
+      index.setProperty(key, home);
+      jdkDirs.put(jdkDir, storeRoot);
+    }
+  }
+
+  /**
+   * import bundle into the writable store and register its JDKs, including platform partitions.
+   * JDK directories are extracted in parallel and directories already present with the same fingerprint are skipped
+   *
+   * @param bundleFile    bundle file
+   * @param writableStore writable JDK store
+   * @param threads       extraction threads
+   * @return bundle index of the store itself: vendor@version=JDK home, relative to the store
+   */
+  public Properties importBundle(File bundleFile, final JdkStore writableStore, int threads) throws Exception {
+    try (final ZipFile zipFile = new ZipFile(bundleFile)) {
+      final Properties index = readProperties(zipFile, JdkStore.INDEX_FILE);
+      final Properties checksums = readProperties(zipFile, CHECKSUMS_FILE);
+      // partition -> index
+      Map<String, Properties> partitionIndexes = new TreeMap<>();
+      Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        if (!name.startsWith(JDKS_PREFIX) && name.endsWith("/" + JdkStore.INDEX_FILE)) {
+          String partition = name.substring(0, name.length() - JdkStore.INDEX_FILE.length() - 1);
+          if (partition.contains("/") || partition.equals("..")) {
+            throw new IOException("Illegal entry in JDK cache bundle: " + name);
+          }
+          partitionIndexes.put(partition, readProperties(zipFile, name));
+        }
+      }
+      // JDK directory, relative to the store -> entries
+      final Map<String, List<ZipArchiveEntry>> jdkEntries = new LinkedHashMap<>();
+      entries = zipFile.getEntriesInPhysicalOrder();
+      while (entries.hasMoreElements()) {
+        ZipArchiveEntry entry = entries.nextElement();
+        if (entry.getName().startsWith(JDKS_PREFIX)) {
+          String path = entry.getName().substring(JDKS_PREFIX.length());
+          String jdkDir = topDirectory(path);
+          if (partitionIndexes.containsKey(jdkDir) && path.length() > jdkDir.length() + 1) {
+            jdkDir = jdkDir + "/" + topDirectory(path.substring(jdkDir.length() + 1));
+          }
+          if (!jdkEntries.containsKey(jdkDir)) {
+            jdkEntries.put(jdkDir, new ArrayList<ZipArchiveEntry>());
+          }
+          jdkEntries.get(jdkDir).add(entry);
+        }
+      }
+      Files.createDirectories(writableStore.getRoot());
+      ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, jdkEntries.size())));
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (final Map.Entry<String, List<ZipArchiveEntry>> entry : jdkEntries.entrySet()) {
+          final String jdkDir = entry.getKey();
+          final String checksum = checksums.getProperty(jdkDir);
+          final Path target = writableStore.getRoot().resolve(jdkDir);
+          futures.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+              // verify present JDKs on the pool too, a warm restore reads every file of every JDK
+              if (checksum != null && target.toFile().exists() && checksum.equals(fingerprint(target))) {
+                log.info("JDK " + jdkDir + " already present in " + writableStore.getRoot() + ", skipped");
+                return null;
+              }
+              log.info("Import JDK " + jdkDir + " into " + writableStore.getRoot());
+              extractDirectory(zipFile, entry.getValue(), jdkDir, target);
+              if (checksum != null && !checksum.equals(fingerprint(target))) {
+                throw new IOException("Checksum mismatch for imported JDK " + jdkDir);
+              }
+              return null;
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+      registerIndex(writableStore, index);
+      for (Map.Entry<String, Properties> entry : partitionIndexes.entrySet()) {
+        registerIndex(new JdkStore(writableStore.getRoot().resolve(entry.getKey()), false), entry.getValue());
+      }
+      return index;
+    }
+  }
+
+  private static void registerIndex(JdkStore jdkStore, Properties index) throws IOException {
+    for (Map.Entry<String, String> entry : toMap(index).entrySet()) {
+      String key = entry.getKey();
+      String vendor = key.substring(0, key.lastIndexOf('@'));
+      String version = key.substring(key.lastIndexOf('@') + 1);
+      jdkStore.register(version, vendor, jdkStore.getRoot().resolve(entry.getValue()));
+    }
+  }
+
+  /**
+   * fingerprint of a JDK directory: SHA-256 over sorted relative paths, file sizes, CRC32 of file contents
+   * and symbolic link targets
+   *
+   * @param jdkDir JDK directory
+   * @return hex digest
+   */
+  public static String fingerprint(final Path jdkDir) throws Exception {
+    final List<String> lines = new ArrayList<>();
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    Files.walkFileTree(jdkDir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        String relativePath = relativePath(jdkDir, file);
+        if (attrs.isSymbolicLink()) {
+          lines.add(relativePath + " -> " + Files.readSymbolicLink(file).toString().replace('\\', '/'));
+        } else {
+          CRC32 crc = new CRC32();
+          try (InputStream in = Files.newInputStream(file)) {
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+              crc.update(buffer, 0, len);
+            }
+          }
+          lines.add(relativePath + " " + attrs.size() + " " + Long.toHexString(crc.getValue()));
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(lines);
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    for (String line : lines) {
+      digest.update(line.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  private void writeDirectory(final ZipArchiveOutputStream zipOut, final Path storeRoot, Path jdkDir) throws IOException {
+    final List<Path> files = new ArrayList<>();
+    Files.walkFileTree(jdkDir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        files.add(dir);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        files.add(file);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(files);
+    byte[] buffer = new byte[BUFFER_SIZE];
+    for (Path file : files) {
+      String name = JDKS_PREFIX + relativePath(storeRoot, file);
+      ZipArchiveEntry entry;
+      if (Files.isSymbolicLink(file)) {
+        entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(UnixStat.LINK_FLAG | 0777);
+        entry.setTime(entryTime());
+        zipOut.putArchiveEntry(entry);
+        zipOut.write(Files.readSymbolicLink(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+      } else if (Files.isDirectory(file)) {
+        int mode = unixMode(file);
+        entry = new ZipArchiveEntry(name + "/");
+        entry.setUnixMode(UnixStat.DIR_FLAG | (mode < 0 ? 0755 : mode));
+        entry.setTime(entryTime());
+        zipOut.putArchiveEntry(entry);
+      } else {
+        int mode = unixMode(file);
+        entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(UnixStat.FILE_FLAG | (mode < 0 ? 0644 : mode));
+        entry.setTime(entryTime());
+        zipOut.putArchiveEntry(entry);
+        try (InputStream in = Files.newInputStream(file)) {
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            zipOut.write(buffer, 0, len);
+          }
+        }
+      }
+      zipOut.closeArchiveEntry();
+    }
+  }
+
+  private void extractDirectory(ZipFile zipFile, List<ZipArchiveEntry> entries, String jdkDir, Path target)
+    throws Exception {
+    Path tempDir = target.getParent().resolve(target.getFileName() + ".importing");
+    if (tempDir.toFile().exists()) {
+      deleteDirectory(tempDir);
+    }
+    String prefix = JDKS_PREFIX + jdkDir + "/";
+    byte[] buffer = new byte[BUFFER_SIZE];
+    // directory permissions are applied last, so read-only directories can be filled first
+    Map<Path, Integer> directoryModes = new TreeMap<>(Collections.reverseOrder());
+    for (ZipArchiveEntry entry : entries) {
+      if (!entry.getName().startsWith(prefix)) {
+        continue;
+      }
+      Path file = tempDir.resolve(entry.getName().substring(prefix.length())).normalize();
+      if (!file.startsWith(tempDir)) {
+        throw new IOException("Illegal entry in JDK cache bundle: " + entry.getName());
+      }
+      if (entry.isDirectory()) {
+        Files.createDirectories(file);
+        directoryModes.put(file, entry.getUnixMode());
+      } else if (entry.isUnixSymlink()) {
+        Files.createDirectories(file.getParent());
+        Files.createSymbolicLink(file, Paths.get(zipFile.getUnixSymlink(entry)));
+      } else {
+        Files.createDirectories(file.getParent());
+        try (InputStream in = zipFile.getInputStream(entry); OutputStream out = Files.newOutputStream(file)) {
+          int len;
+          while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
+          }
+        }
+        setUnixMode(file, entry.getUnixMode());
+      }
+    }
+    for (Map.Entry<Path, Integer> entry : directoryModes.entrySet()) {
+      setUnixMode(entry.getKey(), entry.getValue());
+    }
+    if (target.toFile().exists()) {
+      deleteDirectory(target);
+    }
+    Files.move(tempDir, target, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static int unixMode(Path file) throws IOException {
+    if (!Files.getFileStore(file).supportsFileAttributeView("posix")) {
+      return -1;
+    }
+    int mode = 0;
+    for (PosixFilePermission permission : Files.getPosixFilePermissions(file, LinkOption.NOFOLLOW_LINKS)) {
+      mode |= 1 << (8 - permission.ordinal());
+    }
+    return mode;
+  }
+
+  static void setUnixMode(Path file, int unixMode) throws IOException {
+    int mode = unixMode & 0777;
+    if (mode == 0 || !Files.getFileStore(file).supportsFileAttributeView("posix")) {
+      return;
+    }
+    Set<PosixFilePermission> permissions = new HashSet<>();
+    for (PosixFilePermission permission : PosixFilePermission.values()) {
+      if ((mode & (1 << (8 - permission.ordinal()))) != 0) {
+        permissions.add(permission);
+      }
+    }
+    Files.setPosixFilePermissions(file, permissions);
+  }
+
+  static void deleteDirectory(Path dir) throws IOException {
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * fixed entry time for reproducible bundles: 1980-02-01 in local calendar fields, because zip stores
+   * DOS time converted with the default timezone, so every exporter writes the same bytes
+   */
+  private static long entryTime() {
+    return new GregorianCalendar(1980, Calendar.FEBRUARY, 1).getTimeInMillis();
+  }
+
+  private static void writeEntry(ZipArchiveOutputStream zipOut, String name, String content) throws IOException {
+    ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setUnixMode(UnixStat.FILE_FLAG | 0644);
+    entry.setTime(entryTime());
+    zipOut.putArchiveEntry(entry);
+    zipOut.write(content.getBytes(StandardCharsets.UTF_8));
+    zipOut.closeArchiveEntry();
+  }
+
+  private static Properties readProperties(ZipFile zipFile, String name) throws IOException {
+    Properties properties = new Properties();
+    ZipArchiveEntry entry = zipFile.getEntry(name);
+    if (entry == null) {
+      throw new IOException("Not a JDK cache bundle, " + name + " not found");
+    }
+    try (InputStream in = zipFile.getInputStream(entry)) {
+      properties.load(in);
+    }
+    return properties;
+  }
+
+  static String readEntry(File bundleFile, String name) throws IOException {
+    try (ZipFile zipFile = new ZipFile(bundleFile)) {
+      ZipArchiveEntry entry = zipFile.getEntry(name);
+      if (entry == null) {
+        return null;
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (InputStream in = zipFile.getInputStream(entry)) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+          out.write(buffer, 0, len);
+        }
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Properties.store() writes a timestamp comment in hash order, write sorted entries without comments instead
+   */
+  private static String storeSorted(Properties properties) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, String> entry : toMap(properties).entrySet()) {
+      Properties single = new Properties();
+      single.setProperty(entry.getKey(), entry.getValue());
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      single.store(out, null);
+      String[] lines = new String(out.toByteArray(), StandardCharsets.ISO_8859_1).split("\r?\n");
+      for (String line : lines) {
+        if (!line.startsWith("#") && !line.isEmpty()) {
+          builder.append(line).append('\n');
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  private static String toolchainsXml(Properties index) {
+    Xpp3Dom toolchainsDom = new Xpp3Dom("toolchains");
+    for (Map.Entry<String, String> entry : toMap(index).entrySet()) {
+      String key = entry.getKey();
+      String vendor = key.substring(0, key.lastIndexOf('@'));
+      String version = key.substring(key.lastIndexOf('@') + 1);
+      toolchainsDom.addChild(AbstractJdkStoreMojo.jdkToolchainDom(version, vendor,
+        JDKS_DIR_PLACEHOLDER + "/" + entry.getValue()));
+    }
+    StringWriter writer = new StringWriter();
+    Xpp3DomWriter.write(writer, toolchainsDom);
+    return writer.toString();
+  }
+
+  private static Map<String, String> toMap(Properties properties) {
+    Map<String, String> map = new TreeMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      map.put(name, properties.getProperty(name));
+    }
+    return map;
+  }
+
+  private static String topDirectory(String relativePath) {
+    String path = relativePath.replace('\\', '/');
+    return path.contains("/") ? path.substring(0, path.indexOf('/')) : path;
+  }
+
+  private static String relativePath(Path base, Path file) {
+    return base.relativize(file).toString().replace('\\', '/');
+  }
+}
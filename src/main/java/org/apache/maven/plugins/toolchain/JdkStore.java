@@ -0,0 +1,182 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A directory of installed JDKs, with a <code>jdks.properties</code> index mapping the requested
+ * vendor and version to the JDK home inside the store.
+ * Stores are layered: read-only stores (for example JDKs baked into a container image) are looked up first,
+ * new installs always go to the writable store.
+ * JDKs provisioned for a given platform live in a partition of the store, a sub store named by the platform id,
+ * such as <code>linux-aarch64-musl</code>, so one store can be prebuilt for a whole fleet.
+ */
+public class JdkStore {
+  public static final String INDEX_FILE = "jdks.properties";
+
+  private final Path root;
+
+  private final boolean readOnly;
+
+  public JdkStore(Path root, boolean readOnly) {
+    this.root = root;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * default writable store: ~/.m2/jdks
+   *
+   * @return store directory
+   */
+  public static Path defaultJdksDir() {
+    return Paths.get(System.getProperty("user.home")).resolve(".m2").resolve("jdks");
+  }
+
+  public Path getRoot() {
+    return root;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * sub store for JDKs of the platform
+   *
+   * @param platform platform
+   * @return partition store
+   */
+  public JdkStore getPartition(Platform platform) {
+    return new JdkStore(root.resolve(platform.getId()), readOnly);
+  }
+
+  /**
+   * partitions of the store: sub directories with their own index, sorted by name
+   *
+   * @return partition stores
+   */
+  public List<JdkStore> getPartitions() {
+    List<JdkStore> partitions = new ArrayList<>();
+    File[] dirs = root.toFile().listFiles();
+    if (dirs != null) {
+      Arrays.sort(dirs);
+      for (File dir : dirs) {
+        if (new File(dir, INDEX_FILE).isFile()) {
+          partitions.add(new JdkStore(dir.toPath(), readOnly));
+        }
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * find JDK home from store index, then from the host platform partition
+   *
+   * @param version version
+   * @param vendor  vendor
+   * @return JDK home, null if not indexed or the indexed directory is missing
+   */
+  public Path findJdkHome(String version, String vendor) throws IOException {
+    Path jdkHome = findIndexedJdkHome(version, vendor);
+    if (jdkHome == null) {
+      JdkStore hostPartition = getPartition(Platform.host());
+      if (hostPartition.getRoot().toFile().exists()) {
+        jdkHome = hostPartition.findIndexedJdkHome(version, vendor);
+      }
+    }
+    return jdkHome;
+  }
+
+  /**
+   * find JDK home from this store's index only
+   *
+   * @param version version
+   * @param vendor  vendor
+   * @return JDK home, null if not indexed or the indexed directory is missing
+   */
+  public Path findIndexedJdkHome(String version, String vendor) throws IOException {
+    String relativePath = loadIndex().getProperty(indexKey(version, vendor));
+    if (relativePath == null) {
+      return null;
+    }
+    Path jdkHome = root.resolve(relativePath);
+    if (!jdkHome.resolve("bin").toFile().exists()) {
+      return null;
+    }
+    return jdkHome;
+  }
+
+  /**
+   * add installed JDK to store index
+   *
+   * @param version version
+   * @param vendor  vendor
+   * @param jdkHome JDK home, must be inside the store
+   */
+  public void register(String version, String vendor, Path jdkHome) throws IOException {
+    if (readOnly) {
+      throw new IOException("JDK store is read-only: " + root);
+    }
+    String relativePath = root.toAbsolutePath().normalize().relativize(jdkHome.toAbsolutePath().normalize())
+      .toString().replace('\\', '/');
+    synchronized (JdkStore.class) {
+      Properties index = loadIndex();
+      index.setProperty(indexKey(version, vendor), relativePath);
+      Files.createDirectories(root);
+      Path tempFile = Files.createTempFile(root, INDEX_FILE, ".tmp");
+      try (OutputStream out = Files.newOutputStream(tempFile)) {
+        index.store(out, "JDK store index: vendor@version=JDK home");
+      }
+      Files.move(tempFile, root.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  public Properties loadIndex() throws IOException {
+    Properties index = new Properties();
+    Path indexFile = root.resolve(INDEX_FILE);
+    if (indexFile.toFile().exists()) {
+      try (InputStream in = Files.newInputStream(indexFile)) {
+        index.load(in);
+      }
+    }
+    return index;
+  }
+
+  static String indexKey(String version, String vendor) {
+    return vendor + "@" + version;
+  }
+
+  @Override
+  public String toString() {
+    return (readOnly ? "read-only" : "writable") + " JDK store " + root;
+  }
+}
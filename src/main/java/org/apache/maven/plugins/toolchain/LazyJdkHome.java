@@ -0,0 +1,137 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.toolchain.model.ToolchainModel;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <code>jdkHome</code> configuration element of a JDK toolchain model whose JDK is not installed yet.
+ * Maven keeps only the toolchain model in build context and session, and rebuilds the toolchain from it through
+ * <code>JavaToolchainFactory</code>, which reads this element's value: the JDK is installed once, on that first read
+ * by a consuming plugin, or in background after {@link #prefetch()}.
+ */
+public class LazyJdkHome extends Xpp3Dom {
+  private static final ThreadLocal<Boolean> SUSPENDED = new ThreadLocal<>();
+
+  private final String version;
+
+  private final String vendor;
+
+  private final FutureTask<String> installer;
+
+  private volatile boolean materialized;
+
+  /**
+   * @param version   version
+   * @param vendor    vendor
+   * @param installer install JDK and return JDK home, null if failed
+   */
+  public LazyJdkHome(String version, String vendor, Callable<String> installer) {
+    super("jdkHome");
+    this.version = version;
+    this.vendor = vendor;
+    this.installer = new FutureTask<>(installer);
+  }
+
+  /**
+   * don't install JDK when the value is read on this thread, until {@link #resume()}.
+   * Used while the toolchain goal itself looks up toolchains, because Maven builds every toolchain of a type
+   * before matching requirements. The JDK running Maven is reported as JDK home meanwhile.
+   */
+  public static void suspend() {
+    SUSPENDED.set(Boolean.TRUE);
+  }
+
+  public static void resume() {
+    SUSPENDED.remove();
+  }
+
+  /**
+   * @param model toolchain model
+   * @return true if the model is a JDK toolchain not installed yet
+   */
+  public static boolean isPending(ToolchainModel model) {
+    if (!(model.getConfiguration() instanceof Xpp3Dom)) {
+      return false;
+    }
+    Xpp3Dom jdkHome = ((Xpp3Dom) model.getConfiguration()).getChild("jdkHome");
+    return jdkHome instanceof LazyJdkHome && !((LazyJdkHome) jdkHome).materialized;
+  }
+
+  /**
+   * start JDK install in background to overlap with other build work
+   */
+  public void prefetch() {
+    Thread thread = new Thread(installer, "toolchain-jdk-" + vendor + "-" + version);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public boolean isFailed() {
+    if (!installer.isDone()) {
+      return false;
+    }
+    try {
+      return installer.get() == null;
+    } catch (Exception e) {
+      return true;
+    }
+  }
+
+  @Override
+  public String getValue() {
+    if (!materialized && SUSPENDED.get() != null) {
+      return System.getProperty("java.home");
+    }
+    materialize();
+    return super.getValue();
+  }
+
+  private void materialize() {
+    if (materialized) {
+      return;
+    }
+    // FutureTask runs the installer only once, concurrent readers wait for the same install
+    installer.run();
+    String jdkHome;
+    try {
+      jdkHome = installer.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while installing JDK " + version, e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to install JDK " + version, e.getCause());
+    }
+    if (jdkHome == null) {
+      throw new IllegalStateException("Failed to install JDK " + version + " from " + vendor);
+    }
+    synchronized (this) {
+      if (!materialized) {
+        setValue(jdkHome);
+        materialized = true;
+      }
+    }
+  }
+}
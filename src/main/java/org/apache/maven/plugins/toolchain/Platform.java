@@ -0,0 +1,231 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Target platform of a JDK install: operating system, architecture, libc type and archive type,
+ * with values of the Foojay Disco API.
+ * Parsed from <code>os-arch[-libc][-archiveType]</code>, such as <code>linux-aarch64-musl</code> or <code>windows-x64</code>.
+ */
+public class Platform {
+  private static final List<String> ARCHS = Arrays.asList("x64", "aarch64", "x32", "arm", "ppc64le", "s390x", "riscv64");
+
+  private static final List<String> LIBCS = Arrays.asList("glibc", "musl", "c_std_lib", "libc");
+
+  private final String os;
+
+  private final String arch;
+
+  private final String libc;
+
+  private final String archiveType;
+
+  public Platform(String os, String arch, String libc, String archiveType) {
+    this.os = os;
+    this.arch = arch;
+    this.libc = libc != null ? libc : defaultLibc(os);
+    this.archiveType = archiveType != null ? archiveType : defaultArchiveType(os);
+  }
+
+  /**
+   * platform of the running JVM
+   *
+   * @return host platform
+   */
+  public static Platform host() {
+    String os = hostOsName();
+    return new Platform(os, hostArchName(), hostLibc(os, new File("/lib")), null);
+  }
+
+  public static Platform parse(String text) {
+    String[] parts = text.trim().toLowerCase().split("-");
+    if (parts.length < 2) {
+      throw new IllegalArgumentException("Illegal platform '" + text + "', expected os-arch[-libc][-archiveType]");
+    }
+    String os = parts[0];
+    if (os.equals("mac") || os.equals("darwin")) {
+      os = "macos";
+    }
+    if (!os.equals("linux") && !os.equals("macos") && !os.equals("windows")) {
+      throw new IllegalArgumentException("Illegal platform '" + text + "', os should be linux, macos or windows");
+    }
+    String arch = normalizeArch(parts[1]);
+    if (!ARCHS.contains(arch)) {
+      throw new IllegalArgumentException("Illegal platform '" + text + "', arch should be one of " + ARCHS);
+    }
+    String libc = null;
+    String archiveType = null;
+    for (int i = 2; i < parts.length; i++) {
+      if (parts[i].equals("zip") || parts[i].equals("tar.gz") || parts[i].equals("tgz")) {
+        archiveType = parts[i];
+      } else if (LIBCS.contains(parts[i])) {
+        libc = parts[i];
+      } else {
+        throw new IllegalArgumentException("Illegal platform '" + text + "', libc should be one of " + LIBCS);
+      }
+    }
+    return new Platform(os, arch, libc, archiveType);
+  }
+
+  public String getOs() {
+    return os;
+  }
+
+  public String getArch() {
+    return arch;
+  }
+
+  public String getLibc() {
+    return libc;
+  }
+
+  public String getArchiveType() {
+    return archiveType;
+  }
+
+  public String getBitness() {
+    return arch.equals("x32") || arch.equals("arm") ? "32" : "64";
+  }
+
+  /**
+   * @return store partition name: os-arch-libc
+   */
+  public String getId() {
+    return libc.isEmpty() ? os + "-" + arch : os + "-" + arch + "-" + libc;
+  }
+
+  /**
+   * whether JDKs of this platform can run on the running JVM's machine, needed for post-install steps such as gu
+   *
+   * @return true if same os, arch and libc as host
+   */
+  public boolean isHost() {
+    return getId().equals(host().getId());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Platform)) {
+      return false;
+    }
+    Platform platform = (Platform) o;
+    return getId().equals(platform.getId()) && archiveType.equals(platform.archiveType);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * getId().hashCode() + archiveType.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return getId() + "-" + archiveType;
+  }
+
+  private static String defaultLibc(String os) {
+    switch (os) {
+      case "linux":
+        return "glibc";
+      case "windows":
+        return "c_std_lib";
+      case "macos":
+        return "libc";
+      default:
+        return "";
+    }
+  }
+
+  private static String defaultArchiveType(String os) {
+    return os.equals("windows") ? "zip" : "tar.gz";
+  }
+
+  private static String hostOsName() {
+    String os = System.getProperty("os.name").toLowerCase();
+    if (os.contains("mac")) {
+      return "macos";
+    } else if (os.contains("windows")) {
+      return "windows";
+    } else {
+      return "linux";
+    }
+  }
+
+  /**
+   * detect musl libc, such as Alpine Linux, by its dynamic loader <code>ld-musl-*.so.1</code>
+   *
+   * @param os     host os
+   * @param libDir directory of the dynamic loader, /lib
+   * @return musl, or null for the os default
+   */
+  static String hostLibc(String os, File libDir) {
+    if (os.equals("linux")) {
+      String[] loaders = libDir.list();
+      if (loaders != null) {
+        for (String loader : loaders) {
+          if (loader.startsWith("ld-musl-") && loader.endsWith(".so.1")) {
+            return "musl";
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static String hostArchName() {
+    String arch = normalizeArch(System.getProperty("os.arch").toLowerCase());
+    return ARCHS.contains(arch) ? arch : "x64";
+  }
+
+  /**
+   * map arch aliases of os.arch and common platform names to Foojay Disco API values
+   *
+   * @param arch arch name, lower case
+   * @return arch value
+   */
+  private static String normalizeArch(String arch) {
+    switch (arch) {
+      case "amd64":
+      case "x86_64":
+        return "x64";
+      case "arm64":
+        return "aarch64";
+      case "x86":
+      case "x86_32":
+      case "amd32":
+      case "i386":
+      case "i486":
+      case "i586":
+      case "i686":
+        return "x32";
+      case "arm32":
+      case "aarch32":
+        return "arm";
+      default:
+        return arch;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decompressor running an external process found on PATH, such as <code>pigz -d -c</code>,
+ * so inflation runs outside of the Maven JVM in parallel with tar extraction.
+ */
+public class ProcessDecompressor implements Decompressor {
+  private final String executable;
+
+  private final List<String> arguments;
+
+  private File executableFile;
+
+  private boolean resolved;
+
+  public ProcessDecompressor(String executable, String... arguments) {
+    this.executable = executable;
+    this.arguments = Arrays.asList(arguments);
+  }
+
+  @Override
+  public String getName() {
+    return executable;
+  }
+
+  @Override
+  public synchronized boolean isAvailable() {
+    if (!resolved) {
+      executableFile = findExecutable(executable);
+      resolved = true;
+    }
+    return executableFile != null;
+  }
+
+  @Override
+  public InputStream decompress(File archiveFile) throws IOException {
+    if (!isAvailable()) {
+      throw new IOException(executable + " not found on PATH");
+    }
+    List<String> command = new ArrayList<>();
+    command.add(executableFile.getAbsolutePath());
+    command.addAll(arguments);
+    command.add(archiveFile.getAbsolutePath());
+    ProcessBuilder pb = new ProcessBuilder(command);
+    pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+    final Process process = pb.start();
+    process.getOutputStream().close();
+    return new ProcessInputStream(process);
+  }
+
+  private static File findExecutable(String name) {
+    String path = System.getenv("PATH");
+    if (path == null) {
+      return null;
+    }
+    boolean windows = System.getProperty("os.name").toLowerCase().contains("windows");
+    for (String dir : path.split(File.pathSeparator)) {
+      if (dir.isEmpty()) {
+        continue;
+      }
+      File file = new File(dir, windows ? name + ".exe" : name);
+      if (file.isFile() && file.canExecute()) {
+        return file;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * stdout of the process: checks exit code after end of stream, and kills the process if closed early
+   */
+  private class ProcessInputStream extends FilterInputStream {
+    private final Process process;
+
+    private boolean eof;
+
+    ProcessInputStream(Process process) {
+      super(process.getInputStream());
+      this.process = process;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b < 0) {
+        eof = true;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int count = super.read(b, off, len);
+      if (count < 0) {
+        eof = true;
+      }
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (!eof) {
+        process.destroy();
+        return;
+      }
+      try {
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+          throw new IOException(executable + " exited with code " + exitCode);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        process.destroy();
+        throw new IOException("Interrupted while waiting for " + executable, e);
+      }
+    }
+  }
+}
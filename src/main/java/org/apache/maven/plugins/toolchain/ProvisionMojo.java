@@ -0,0 +1,91 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Install JDK for other os/arch targets into platform partitions of the writable JDK store, so a JDK store can be
+ * prebuilt on one machine and shipped to a fleet of agents as a read-only store.
+ * Host-only post-install steps, such as GraalVM <code>gu install native-image</code>, run only for the host platform.
+ */
+@Mojo(name = "provision", requiresProject = false, threadSafe = true)
+public class ProvisionMojo extends AbstractJdkStoreMojo {
+  /**
+   * JDK version, or use -Dtoolchain.version
+   */
+  @Parameter(property = "toolchain.version", required = true)
+  private String version;
+  /**
+   * JDK vendor, or use -Dtoolchain.vendor
+   */
+  @Parameter(property = "toolchain.vendor", defaultValue = "oracle_open_jdk")
+  private String vendor;
+  /**
+   * target platforms as os-arch[-libc][-archiveType], such as linux-aarch64-musl or windows-x64-zip,
+   * default is the host platform, or use -Dtoolchain.platforms with comma separated platforms
+   */
+  @Parameter(property = "toolchain.platforms")
+  private List<String> platforms;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    List<Platform> targets = new ArrayList<>();
+    try {
+      if (platforms == null || platforms.isEmpty()) {
+        targets.add(Platform.host());
+      } else {
+        for (String platform : platforms) {
+          targets.add(Platform.parse(platform));
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+    FoojayService foojayService = new FoojayService(getLog(), session.getSettings().getActiveProxy());
+    JdkStore writableStore = getWritableJdkStore();
+    for (Platform platform : targets) {
+      JdkStore partition = writableStore.getPartition(platform);
+      Path jdkHome;
+      try {
+        jdkHome = partition.findIndexedJdkHome(version, vendor);
+        if (jdkHome != null) {
+          getLog().info("JDK " + version + " for " + platform + " already provisioned: " + jdkHome);
+          continue;
+        }
+        jdkHome = foojayService.downloadAndExtractJdk(version, vendor, partition.getRoot(), platform);
+        if (jdkHome != null) {
+          partition.register(version, vendor, jdkHome);
+        }
+      } catch (Exception e) {
+        throw new MojoExecutionException("Failed to provision JDK " + version + " for " + platform, e);
+      }
+      if (jdkHome == null) {
+        throw new MojoExecutionException("JDK " + version + " from " + vendor + " not found for " + platform);
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+package org.apache.maven.plugins.toolchain;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extract tar stream with disk writes decoupled from reading: the calling thread inflates and parses the tar stream,
+ * a writer thread writes entries to disk, connected by a bounded queue of reusable buffers.
+ */
+public class TarExtractor {
+  private static final int CHUNK_SIZE = 1024 * 1024;
+  /**
+   * buffers in flight, bounds memory to QUEUE_CAPACITY * CHUNK_SIZE
+   */
+  private static final int QUEUE_CAPACITY = 32;
+
+  private static final int DIRECTORY = 0;
+  private static final int OPEN = 1;
+  private static final int DATA = 2;
+  private static final int CLOSE = 3;
+  private static final int SYMLINK = 4;
+  private static final int HARDLINK = 5;
+  private static final int END = 6;
+
+  /**
+   * extract tar stream into destination directory, existing files are overwritten
+   *
+   * @param in      decompressed tar stream
+   * @param destDir destination directory
+   */
+  public void extract(InputStream in, File destDir) throws IOException {
+    final Path destPath = destDir.toPath().toAbsolutePath().normalize();
+    Files.createDirectories(destPath);
+    Writer writer = new Writer();
+    Thread writerThread = new Thread(writer, "toolchain-tar-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    try {
+      TarArchiveInputStream tarIn = new TarArchiveInputStream(in);
+      TarArchiveEntry entry;
+      while ((entry = tarIn.getNextTarEntry()) != null) {
+        Path target = resolve(destPath, entry.getName());
+        long modTime = entry.getModTime().getTime();
+        if (entry.isDirectory()) {
+          writer.put(new Op(DIRECTORY, target, entry.getMode(), modTime));
+        } else if (entry.isSymbolicLink()) {
+          writer.put(new Op(SYMLINK, target, entry.getLinkName(), modTime));
+        } else if (entry.isLink()) {
+          writer.put(new Op(HARDLINK, target, resolve(destPath, entry.getLinkName()).toString(), modTime));
+        } else if (entry.isFile()) {
+          writer.put(new Op(OPEN, target, entry.getMode(), modTime));
+          long remaining = entry.getSize();
+          while (remaining > 0) {
+            byte[] buffer = writer.takeBuffer();
+            int length = readFully(tarIn, buffer, (int) Math.min(remaining, buffer.length));
+            if (length <= 0) {
+              writer.releaseBuffer(buffer);
+              throw new IOException("Unexpected end of tar entry " + entry.getName());
+            }
+            remaining -= length;
+            writer.put(new Op(buffer, length));
+          }
+          writer.put(new Op(CLOSE, target, entry.getMode(), modTime));
+        }
+      }
+      // drain trailing padding, so the decompressor sees end of stream
+      byte[] skipBuffer = new byte[8192];
+      //noinspection StatementWithEmptyBody
+      while (in.read(skipBuffer) >= 0) {
+      }
+    } finally {
+      writer.finish(writerThread);
+    }
+  }
+
+  private static Path resolve(Path destPath, String name) throws IOException {
+    Path target = destPath.resolve(name).normalize();
+    if (!target.startsWith(destPath)) {
+      throw new IOException("Illegal entry outside of destination directory: " + name);
+    }
+    return target;
+  }
+
+  private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      int count = in.read(buffer, offset, length - offset);
+      if (count < 0) {
+        break;
+      }
+      offset += count;
+    }
+    return offset;
+  }
+
+  private static final class Op {
+    final int type;
+    final Path path;
+    final int mode;
+    final long modTime;
+    final String linkName;
+    final byte[] buffer;
+    final int length;
+
+    Op(int type, Path path, int mode, long modTime) {
+      this(type, path, mode, modTime, null, null, 0);
+    }
+
+    Op(int type, Path path, String linkName, long modTime) {
+      this(type, path, 0, modTime, linkName, null, 0);
+    }
+
+    Op(byte[] buffer, int length) {
+      this(DATA, null, 0, 0, null, buffer, length);
+    }
+
+    private Op(int type, Path path, int mode, long modTime, String linkName, byte[] buffer, int length) {
+      this.type = type;
+      this.path = path;
+      this.mode = mode;
+      this.modTime = modTime;
+      this.linkName = linkName;
+      this.buffer = buffer;
+      this.length = length;
+    }
+  }
+
+  private static final class Writer implements Runnable {
+    private final BlockingQueue<Op> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY * 2);
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // directory permissions and times are applied last, so read-only directories can be filled first
+    // and writing their entries doesn't touch the times
+    private final Map<Path, Op> directories = new TreeMap<>(Collections.reverseOrder());
+    private volatile Throwable failure;
+    private int allocated;
+
+    @Override
+    public void run() {
+      OutputStream out = null;
+      try {
+        while (true) {
+          Op op = queue.take();
+          switch (op.type) {
+            case DIRECTORY:
+              Files.createDirectories(op.path);
+              directories.put(op.path, op);
+              break;
+            case OPEN:
+              Files.createDirectories(op.path.getParent());
+              Files.deleteIfExists(op.path);
+              out = Files.newOutputStream(op.path);
+              break;
+            case DATA:
+              out.write(op.buffer, 0, op.length);
+              buffers.offer(op.buffer);
+              break;
+            case CLOSE:
+              out.close();
+              out = null;
+              JdkCacheBundle.setUnixMode(op.path, op.mode);
+              Files.setLastModifiedTime(op.path, FileTime.fromMillis(op.modTime));
+              break;
+            case SYMLINK:
+              Files.createDirectories(op.path.getParent());
+              Files.deleteIfExists(op.path);
+              Files.createSymbolicLink(op.path, Paths.get(op.linkName));
+              Files.getFileAttributeView(op.path, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                .setTimes(FileTime.fromMillis(op.modTime), null, null);
+              break;
+            case HARDLINK:
+              Files.createDirectories(op.path.getParent());
+              Files.copy(Paths.get(op.linkName), op.path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.COPY_ATTRIBUTES);
+              break;
+            default:
+              for (Op directory : directories.values()) {
+                JdkCacheBundle.setUnixMode(directory.path, directory.mode);
+                Files.setLastModifiedTime(directory.path, FileTime.fromMillis(directory.modTime));
+              }
+              return;
+          }
+        }
+      } catch (Throwable e) {
+        failure = e;
+        queue.clear();
+      } finally {
+        if (out != null) {
+          try {
+            out.close();
+          } catch (IOException ignore) {
+          }
+        }
+      }
+    }
+
+    void put(Op op) throws IOException {
+      try {
+        while (!queue.offer(op, 100, TimeUnit.MILLISECONDS)) {
+          checkFailure();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while extracting tar", e);
+      }
+      checkFailure();
+    }
+
+    byte[] takeBuffer() throws IOException {
+      byte[] buffer = buffers.poll();
+      if (buffer == null && allocated < QUEUE_CAPACITY) {
+        allocated++;
+        return new byte[CHUNK_SIZE];
+      }
+      try {
+        while (buffer == null) {
+          checkFailure();
+          buffer = buffers.poll(100, TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while extracting tar", e);
+      }
+      return buffer;
+    }
+
+    void releaseBuffer(byte[] buffer) {
+      buffers.offer(buffer);
+    }
+
+    void finish(Thread writerThread) throws IOException {
+      try {
+        if (failure == null) {
+          put(new Op(END, null, 0, 0));
+        }
+        writerThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while extracting tar", e);
+      }
+      checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+      Throwable e = failure;
+      if (e != null) {
+        throw e instanceof IOException ? (IOException) e : new IOException("Failed to write tar entry", e);
+      }
+    }
+  }
+}
@@ -19,8 +19,6 @@ package org.apache.maven.plugins.toolchain;
  * under the License.
  */
 
-import org.apache.maven.execution.MavenSession;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -34,18 +32,16 @@ import org.apache.maven.toolchain.java.DefaultJavaToolChain;
 import org.apache.maven.toolchain.model.ToolchainModel;
 import org.codehaus.plexus.logging.console.ConsoleLogger;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
-import org.codehaus.plexus.util.xml.Xpp3DomWriter;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Check that toolchains requirements are met by currently configured toolchains and
@@ -56,20 +52,18 @@ import java.util.Properties;
 @Mojo(name = "toolchain", defaultPhase = LifecyclePhase.VALIDATE,
   configurator = "toolchains-requirement-configurator",
   threadSafe = true)
-public class ToolchainMojo extends AbstractMojo {
+public class ToolchainMojo extends AbstractJdkStoreMojo {
   private static final Object LOCK = new Object();
+  /**
+   * lazy JDK homes by vendor@version, shared by all modules so every JDK is installed once
+   */
+  private static final ConcurrentMap<String, LazyJdkHome> LAZY_JDK_HOMES = new ConcurrentHashMap<>();
   /**
    *
    */
   @Component
   private ToolchainManagerPrivate toolchainManagerPrivate;
 
-  /**
-   * The current build session instance. This is used for toolchain manager API calls.
-   */
-  @Parameter(defaultValue = "${session}", readonly = true, required = true)
-  private MavenSession session;
-
   /**
    * Toolchains requirements, specified by one
    * <pre>  &lt;toolchain-type&gt;
@@ -85,6 +79,17 @@ public class ToolchainMojo extends AbstractMojo {
    */
   @Parameter(property = "skip", defaultValue = "false")
   private boolean skip;
+  /**
+   * install missing jdk and testJdk only when a consuming plugin first resolves the toolchain, or use -Dtoolchain.lazy.
+   * A missing testJdk is not registered at all when tests are not compiled, with -Dmaven.test.skip
+   */
+  @Parameter(property = "toolchain.lazy", defaultValue = "false")
+  private boolean lazy;
+  /**
+   * start installing lazy JDK in background right away, or use -Dtoolchain.prefetch
+   */
+  @Parameter(property = "toolchain.prefetch", defaultValue = "false")
+  private boolean prefetch;
 
   @Override
   public void execute()
@@ -167,7 +172,8 @@ public class ToolchainMojo extends AbstractMojo {
         }
         typeFound++;
         if (tc.matchesRequirements(params)) {
-          getLog().info("Found matching toolchain for toolchainType " + toolchainType + ": " + tc);
+          getLog().info("Found matching toolchain for toolchainType " + toolchainType + ": "
+            + (LazyJdkHome.isPending(tc.getModel()) ? "JDK not installed yet" : tc));
           toolchain = tc;
           break;
         }
@@ -182,8 +188,10 @@ public class ToolchainMojo extends AbstractMojo {
       if (vendor == null || vendor.isEmpty()) {
         vendor = "oracle_open_jdk";
       }
-      //sdkman check first
-      if (vendor.equalsIgnoreCase("oracle_open_jdk")) {
+      //JDK stores check first
+      toolchain = findJdkFromStores(version, vendor);
+      //sdkman check
+      if (toolchain == null && vendor.equalsIgnoreCase("oracle_open_jdk")) {
         final Path userHome = Paths.get(System.getProperty("user.home"));
         Path sdkmanJavaDirs = userHome.resolve(".sdkman").resolve("candidates").resolve("java");
         if (sdkmanJavaDirs.toFile().exists()) {
@@ -199,17 +207,21 @@ public class ToolchainMojo extends AbstractMojo {
         }
       }
 
+      if (toolchain == null && lazy && type.equals("testJdk") && isTestSkipped()) {
+        getLog().info("Test compilation skipped, testJdk " + version + " not installed");
+        return true;
+      }
       //install JDK automatically
       if (toolchain == null) {
-        toolchain = autoInstallJdk(version, vendor);
+        if (lazy) {
+          toolchain = lazyInstallJdk(version, vendor);
+        } else {
+          toolchain = autoInstallJdk(version, vendor);
+        }
       }
       //attach new toolchain to session
       if (toolchain != null) {
-        final Map<String, List<ToolchainModel>> requestToolchains = session.getRequest().getToolchains();
-        if (!requestToolchains.containsKey("jdk")) {
-          requestToolchains.put("jdk", new ArrayList<ToolchainModel>());
-        }
-        requestToolchains.get("jdk").add(toolchain.getModel());
+        attachToSession(toolchain);
       }
     }
     if (toolchain != null) {
@@ -224,9 +236,31 @@ public class ToolchainMojo extends AbstractMojo {
     }
   }
 
+  private void attachToSession(ToolchainPrivate toolchain) {
+    synchronized (LOCK) {
+      final Map<String, List<ToolchainModel>> requestToolchains = session.getRequest().getToolchains();
+      if (!requestToolchains.containsKey("jdk")) {
+        requestToolchains.put("jdk", new ArrayList<ToolchainModel>());
+      }
+      requestToolchains.get("jdk").add(toolchain.getModel());
+    }
+  }
+
+  private boolean isTestSkipped() {
+    String testSkip = session.getUserProperties().getProperty("maven.test.skip",
+      session.getSystemProperties().getProperty("maven.test.skip"));
+    return testSkip != null && (testSkip.isEmpty() || Boolean.parseBoolean(testSkip));
+  }
+
   private ToolchainPrivate[] getToolchains(String type)
     throws MojoExecutionException, MisconfiguredToolchainException {
-    return toolchainManagerPrivate.getToolchainsForType(type, session);
+    // looking up toolchains must not install lazy JDKs of other requirements
+    LazyJdkHome.suspend();
+    try {
+      return toolchainManagerPrivate.getToolchainsForType(type, session);
+    } finally {
+      LazyJdkHome.resume();
+    }
   }
 
   /**
@@ -239,8 +273,10 @@ public class ToolchainMojo extends AbstractMojo {
   private ToolchainPrivate autoInstallJdk(String version, String vendor) {
     FoojayService foojayService = new FoojayService(getLog(), session.getSettings().getActiveProxy());
     try {
-      Path jdkHome = foojayService.downloadAndExtractJdk(version, vendor);
+      JdkStore writableStore = getWritableJdkStore();
+      Path jdkHome = foojayService.downloadAndExtractJdk(version, vendor, writableStore.getRoot());
       if (jdkHome != null) {
+        writableStore.register(version, vendor, jdkHome);
         return addJDKToToolchains(jdkHome, version, vendor);
       }
     } catch (Exception e) {
@@ -249,6 +285,77 @@ public class ToolchainMojo extends AbstractMojo {
     return null;
   }
 
+  /**
+   * register placeholder toolchain, its model installs the JDK when a consuming plugin builds the toolchain first time
+   *
+   * @param version version
+   * @param vendor  vendor
+   * @return placeholder toolchain
+   */
+  private ToolchainPrivate lazyInstallJdk(final String version, final String vendor) {
+    final String key = JdkStore.indexKey(version, vendor);
+    LazyJdkHome jdkHome = LAZY_JDK_HOMES.get(key);
+    if (jdkHome != null && jdkHome.isFailed()) {
+      LAZY_JDK_HOMES.remove(key, jdkHome);
+      jdkHome = null;
+    }
+    if (jdkHome == null) {
+      LazyJdkHome lazyJdkHome = new LazyJdkHome(version, vendor, new Callable<String>() {
+        @Override
+        public String call() {
+          ToolchainPrivate installed = autoInstallJdk(version, vendor);
+          return installed == null ? null : ((DefaultJavaToolChain) installed).getJavaHome();
+        }
+      });
+      jdkHome = LAZY_JDK_HOMES.putIfAbsent(key, lazyJdkHome);
+      if (jdkHome == null) {
+        jdkHome = lazyJdkHome;
+        getLog().info("JDK " + version + " will be installed when the toolchain is used");
+        if (prefetch) {
+          jdkHome.prefetch();
+        }
+      }
+    }
+    ToolchainModel model = buildJdkToolchainModel(version, vendor, "");
+    Xpp3Dom configuration = new Xpp3Dom("configuration");
+    configuration.addChild(jdkHome);
+    model.setConfiguration(configuration);
+    return new DefaultJavaToolChain(model, new ConsoleLogger());
+  }
+
+  /**
+   * look up JDK through all store layers: read-only stores first, then the writable store
+   *
+   * @param version version
+   * @param vendor  vendor
+   * @return toolchain
+   */
+  private ToolchainPrivate findJdkFromStores(String version, String vendor) {
+    for (JdkStore jdkStore : getJdkStores()) {
+      Path jdkHome;
+      try {
+        jdkHome = jdkStore.findJdkHome(version, vendor);
+      } catch (IOException e) {
+        getLog().error("Failed to find JDK from " + jdkStore, e);
+        continue;
+      }
+      if (jdkHome != null) {
+        String javaHome = jdkHome.toAbsolutePath().toString();
+        getLog().info("Found JDK " + version + " in " + jdkStore + ": " + javaHome);
+        ToolchainPrivate toolchain = buildJdkToolchain(version, vendor, javaHome);
+        // the store hit is usable even if ~/.m2 is not writable, such as in a container
+        try {
+          addJDKToToolchainsXml(javaHome, version, vendor);
+        } catch (Exception e) {
+          getLog().warn("Failed to add JDK " + version + " to ~/.m2/toolchains.xml: " + e.getMessage());
+        }
+        return toolchain;
+      }
+    }
+    return null;
+  }
+
+
   private ToolchainPrivate findJdkFromJbang(Path jbangHome, String version, String vendor) {
     try {
       String majorVersion = version;
@@ -292,54 +399,4 @@ public class ToolchainMojo extends AbstractMojo {
     return null;
   }
 
-  private ToolchainPrivate addJDKToToolchains(Path jdkHome, String version, String vendor) throws Exception {
-    final ToolchainPrivate javaToolChain = buildJdkToolchain(version, vendor, jdkHome.toAbsolutePath().toString());
-    File toolchainsXml = new File(new File(System.getProperty("user.home")), ".m2/toolchains.xml");
-    Xpp3Dom toolchainsDom;
-    if (toolchainsXml.exists()) {
-      toolchainsDom = Xpp3DomBuilder.build(new FileReader(toolchainsXml));
-    } else {
-      toolchainsDom = new Xpp3Dom("toolchains");
-    }
-    toolchainsDom.addChild(jdkToolchainDom(version, vendor, jdkHome.toAbsolutePath().toString()));
-    final FileWriter writer = new FileWriter(toolchainsXml);
-    Xpp3DomWriter.write(writer, toolchainsDom);
-    writer.close();
-    return javaToolChain;
-  }
-
-  private ToolchainPrivate buildJdkToolchain(String version, String vendor, String jdkHome) {
-    ToolchainModel toolchainModel = new ToolchainModel();
-    toolchainModel.setType("jdk");
-    Properties provides = new Properties();
-    provides.setProperty("version", version);
-    provides.setProperty("vendor", vendor);
-    toolchainModel.setProvides(provides);
-    Xpp3Dom configuration = new Xpp3Dom("configuration");
-    configuration.addChild(createElement("jdkHome", jdkHome));
-    toolchainModel.setConfiguration(configuration);
-    DefaultJavaToolChain javaToolChain = new DefaultJavaToolChain(toolchainModel, new ConsoleLogger());
-    javaToolChain.setJavaHome(jdkHome);
-    return javaToolChain;
-  }
-
-  private Xpp3Dom jdkToolchainDom(String version, String vendor, String jdkHome) {
-    Xpp3Dom toolchainDom = new Xpp3Dom("toolchain");
-    toolchainDom.addChild(createElement("type", "jdk"));
-    Xpp3Dom providesDom = new Xpp3Dom("provides");
-    providesDom.addChild(createElement("version", version));
-    providesDom.addChild(createElement("vendor", vendor));
-    Xpp3Dom configurationDom = new Xpp3Dom("configuration");
-    configurationDom.addChild(createElement("jdkHome", jdkHome));
-    toolchainDom.addChild(providesDom);
-    toolchainDom.addChild(configurationDom);
-    return toolchainDom;
-  }
-
-  private Xpp3Dom createElement(String name, String value) {
-    Xpp3Dom dom = new Xpp3Dom(name);
-    dom.setValue(value);
-    return dom;
-  }
-
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.toolchain;
+
+
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JdkCacheBundleTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    JdkCacheBundle jdkCacheBundle = new JdkCacheBundle(new DefaultLog(new ConsoleLogger()));
+
+    @Test
+    public void testExportAndImport() throws Exception {
+        Path sourceRoot = temporaryFolder.newFolder("source").toPath();
+        Path jdkHome = sourceRoot.resolve("jdk-17.0.9+9");
+        Files.createDirectories(jdkHome.resolve("bin"));
+        Files.write(jdkHome.resolve("bin").resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+        Files.write(jdkHome.resolve("release"), "JAVA_VERSION=\"17.0.9\"".getBytes(StandardCharsets.UTF_8));
+        new JdkStore(sourceRoot, false).register("17", "temurin", jdkHome);
+
+        File bundleFile = new File(temporaryFolder.getRoot(), "jdks-cache.zip");
+        assertEquals(1, jdkCacheBundle.exportBundle(Collections.singletonList(new JdkStore(sourceRoot, true)), bundleFile));
+        byte[] bundle = Files.readAllBytes(bundleFile.toPath());
+        jdkCacheBundle.exportBundle(Collections.singletonList(new JdkStore(sourceRoot, true)), bundleFile);
+        assertArrayEquals(bundle, Files.readAllBytes(bundleFile.toPath()));
+
+        Path targetRoot = temporaryFolder.newFolder("target").toPath();
+        JdkStore targetStore = new JdkStore(targetRoot, false);
+        assertEquals("jdk-17.0.9+9", jdkCacheBundle.importBundle(bundleFile, targetStore, 2).getProperty("temurin@17"));
+        Path importedHome = targetRoot.resolve("jdk-17.0.9+9");
+        assertEquals(importedHome, targetStore.findIndexedJdkHome("17", "temurin"));
+        assertEquals(JdkCacheBundle.fingerprint(jdkHome), JdkCacheBundle.fingerprint(importedHome));
+        // already present and verified
+        jdkCacheBundle.importBundle(bundleFile, targetStore, 2);
+        assertEquals(JdkCacheBundle.fingerprint(jdkHome), JdkCacheBundle.fingerprint(importedHome));
+        // corrupted with the same size, imported again
+        Files.write(importedHome.resolve("bin").resolve("java"), "jav4".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(JdkCacheBundle.fingerprint(jdkHome), JdkCacheBundle.fingerprint(importedHome));
+        jdkCacheBundle.importBundle(bundleFile, targetStore, 2);
+        assertEquals("java", new String(Files.readAllBytes(importedHome.resolve("bin").resolve("java")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportInDifferentTimeZones() throws Exception {
+        Path sourceRoot = temporaryFolder.newFolder("source").toPath();
+        Path jdkHome = sourceRoot.resolve("jdk-17.0.9+9");
+        Files.createDirectories(jdkHome.resolve("bin"));
+        Files.write(jdkHome.resolve("bin").resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+        new JdkStore(sourceRoot, false).register("17", "temurin", jdkHome);
+
+        File utcBundle = new File(temporaryFolder.getRoot(), "jdks-cache-utc.zip");
+        File laBundle = new File(temporaryFolder.getRoot(), "jdks-cache-la.zip");
+        TimeZone timeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            jdkCacheBundle.exportBundle(Collections.singletonList(new JdkStore(sourceRoot, true)), utcBundle);
+            TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+            jdkCacheBundle.exportBundle(Collections.singletonList(new JdkStore(sourceRoot, true)), laBundle);
+        } finally {
+            TimeZone.setDefault(timeZone);
+        }
+        assertArrayEquals(Files.readAllBytes(utcBundle.toPath()), Files.readAllBytes(laBundle.toPath()));
+    }
+
+    @Test
+    public void testExportAndImportPartition() throws Exception {
+        Path sourceRoot = temporaryFolder.newFolder("source").toPath();
+        JdkStore partition = new JdkStore(sourceRoot, false).getPartition(Platform.parse("linux-aarch64-musl"));
+        Path jdkHome = partition.getRoot().resolve("jdk-17.0.9+9");
+        Files.createDirectories(jdkHome.resolve("bin"));
+        Files.write(jdkHome.resolve("bin").resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+        partition.register("17", "temurin", jdkHome);
+
+        File bundleFile = new File(temporaryFolder.getRoot(), "jdks-cache.zip");
+        assertEquals(1, jdkCacheBundle.exportBundle(Collections.singletonList(new JdkStore(sourceRoot, true)), bundleFile));
+
+        Path targetRoot = temporaryFolder.newFolder("target").toPath();
+        JdkStore targetStore = new JdkStore(targetRoot, false);
+        assertTrue(jdkCacheBundle.importBundle(bundleFile, targetStore, 2).isEmpty());
+        Path importedHome = targetStore.getPartition(Platform.parse("linux-aarch64-musl")).findIndexedJdkHome("17", "temurin");
+        assertEquals(targetRoot.resolve("linux-aarch64-musl").resolve("jdk-17.0.9+9"), importedHome);
+        assertEquals(JdkCacheBundle.fingerprint(jdkHome), JdkCacheBundle.fingerprint(importedHome));
+    }
+}
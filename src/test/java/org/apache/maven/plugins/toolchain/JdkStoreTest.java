@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.toolchain;
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JdkStoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRegisterAndFind() throws Exception {
+        Path root = temporaryFolder.getRoot().toPath();
+        Path jdkHome = Files.createDirectories(root.resolve("jdk-17.0.9+9").resolve("bin"));
+        JdkStore jdkStore = new JdkStore(root, false);
+        assertNull(jdkStore.findJdkHome("17", "temurin"));
+        jdkStore.register("17", "temurin", jdkHome.getParent());
+        assertEquals(jdkHome.getParent(), jdkStore.findJdkHome("17", "temurin"));
+        assertEquals(jdkHome.getParent(), new JdkStore(root, true).findJdkHome("17", "temurin"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOnlyStore() throws Exception {
+        Path root = temporaryFolder.getRoot().toPath();
+        new JdkStore(root, true).register("17", "temurin", root.resolve("jdk-17"));
+    }
+}
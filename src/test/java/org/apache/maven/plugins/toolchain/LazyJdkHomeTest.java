@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.toolchain;
+
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.toolchain.DefaultToolchainManager;
+import org.apache.maven.toolchain.DefaultToolchainManagerPrivate;
+import org.apache.maven.toolchain.Toolchain;
+import org.apache.maven.toolchain.ToolchainFactory;
+import org.apache.maven.toolchain.java.DefaultJavaToolChain;
+import org.apache.maven.toolchain.java.JavaToolchainFactory;
+import org.apache.maven.toolchain.model.ToolchainModel;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyJdkHomeTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger installs = new AtomicInteger();
+
+    private DefaultToolchainManagerPrivate toolchainManager;
+
+    private MavenSession session;
+
+    private ToolchainModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        final File jdkHome = temporaryFolder.getRoot();
+        Files.createDirectories(jdkHome.toPath().resolve("bin"));
+        Files.createFile(jdkHome.toPath().resolve("bin").resolve("java"));
+        JavaToolchainFactory javaToolchainFactory = new JavaToolchainFactory();
+        setField(JavaToolchainFactory.class, javaToolchainFactory, "logger", new ConsoleLogger());
+        toolchainManager = new DefaultToolchainManagerPrivate();
+        setField(DefaultToolchainManager.class, toolchainManager, "logger", new ConsoleLogger());
+        setField(DefaultToolchainManager.class, toolchainManager, "factories",
+            Collections.<String, ToolchainFactory>singletonMap("jdk", javaToolchainFactory));
+        //noinspection deprecation
+        session = new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(),
+            new MavenProject());
+
+        model = new ToolchainModel();
+        model.setType("jdk");
+        Properties provides = new Properties();
+        provides.setProperty("version", "17");
+        provides.setProperty("vendor", "temurin");
+        model.setProvides(provides);
+        Xpp3Dom configuration = new Xpp3Dom("configuration");
+        configuration.addChild(new LazyJdkHome("17", "temurin", new Callable<String>() {
+            @Override
+            public String call() {
+                installs.incrementAndGet();
+                return jdkHome.getAbsolutePath();
+            }
+        }));
+        model.setConfiguration(configuration);
+    }
+
+    @Test
+    public void testInstallOnBuildContextLookup() throws Exception {
+        toolchainManager.storeToolchainToBuildContext(new DefaultJavaToolChain(model, new ConsoleLogger()), session);
+        assertEquals(0, installs.get());
+        Toolchain toolchain = toolchainManager.getToolchainFromBuildContext("jdk", session);
+        assertNotNull(toolchain);
+        assertNotNull(toolchain.findTool("java"));
+        toolchainManager.getToolchainFromBuildContext("jdk", session);
+        assertEquals(1, installs.get());
+    }
+
+    @Test
+    public void testInstallOnRequirementLookup() throws Exception {
+        List<ToolchainModel> models = new ArrayList<>();
+        models.add(model);
+        session.getRequest().getToolchains().put("jdk", models);
+        LazyJdkHome.suspend();
+        try {
+            assertEquals(1, toolchainManager.getToolchainsForType("jdk", session).length);
+        } finally {
+            LazyJdkHome.resume();
+        }
+        assertTrue(LazyJdkHome.isPending(model));
+        assertEquals(0, installs.get());
+        List<Toolchain> toolchains = toolchainManager.getToolchains(session, "jdk",
+            Collections.singletonMap("version", "17"));
+        assertEquals(1, toolchains.size());
+        assertEquals(1, installs.get());
+    }
+
+    private static void setField(Class<?> type, Object target, String name, Object value) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.toolchain;
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PlatformTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testParse() {
+        Platform musl = Platform.parse("linux-aarch64-musl");
+        assertEquals("linux-aarch64-musl", musl.getId());
+        assertEquals("tar.gz", musl.getArchiveType());
+        Platform windows = Platform.parse("windows-amd64-zip");
+        assertEquals("windows-x64-c_std_lib", windows.getId());
+        assertEquals("zip", windows.getArchiveType());
+        assertEquals("linux-x64-glibc", Platform.parse("linux-x64").getId());
+        assertEquals("64", Platform.parse("linux-x64").getBitness());
+        for (String x86 : new String[]{"linux-x86", "linux-i386", "linux-i686"}) {
+            Platform platform = Platform.parse(x86);
+            assertEquals("linux-x32-glibc", platform.getId());
+            assertEquals("32", platform.getBitness());
+        }
+        assertIllegal("linux-sparc");
+        assertIllegal("linux-x64-uclibc");
+    }
+
+    @Test
+    public void testHost() {
+        assertTrue(Platform.host().isHost());
+        assertTrue(Platform.parse(Platform.host().toString()).isHost());
+    }
+
+    @Test
+    public void testHostLibc() throws IOException {
+        File libDir = temporaryFolder.newFolder("lib");
+        assertTrue(new File(libDir, "libc.so.6").createNewFile());
+        assertNull(Platform.hostLibc("linux", libDir));
+        assertEquals("linux-x64-glibc", new Platform("linux", "x64", Platform.hostLibc("linux", libDir), null).getId());
+        assertTrue(new File(libDir, "ld-musl-x86_64.so.1").createNewFile());
+        assertEquals("musl", Platform.hostLibc("linux", libDir));
+        assertEquals("linux-x64-musl", new Platform("linux", "x64", Platform.hostLibc("linux", libDir), null).getId());
+        assertNull(Platform.hostLibc("macos", libDir));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalPlatform() {
+        Platform.parse("solaris-sparc");
+    }
+
+    private static void assertIllegal(String text) {
+        try {
+            Platform.parse(text);
+            fail("Illegal platform accepted: " + text);
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
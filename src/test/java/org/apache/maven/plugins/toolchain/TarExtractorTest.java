@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.toolchain;
+
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TarExtractorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExtract() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        File archiveFile = temporaryFolder.newFile("jdk.tar.gz");
+        // tar keeps seconds: 2023-10-17T00:00:00Z
+        long modTime = 1697500800000L;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archiveFile.toPath()));
+             TarArchiveOutputStream tarOut = new TarArchiveOutputStream(out)) {
+            TarArchiveEntry binEntry = new TarArchiveEntry("jdk-17/bin/");
+            binEntry.setModTime(modTime);
+            tarOut.putArchiveEntry(binEntry);
+            tarOut.closeArchiveEntry();
+            TarArchiveEntry javaEntry = new TarArchiveEntry("jdk-17/bin/java");
+            javaEntry.setMode(0100755);
+            javaEntry.setSize(content.length);
+            javaEntry.setModTime(modTime);
+            tarOut.putArchiveEntry(javaEntry);
+            tarOut.write(content);
+            tarOut.closeArchiveEntry();
+        }
+        Path destDir = temporaryFolder.newFolder("jdks").toPath();
+        try (InputStream in = new InflaterDecompressor().decompress(archiveFile)) {
+            new TarExtractor().extract(in, destDir.toFile());
+        }
+        Path java = destDir.resolve("jdk-17").resolve("bin").resolve("java");
+        assertArrayEquals(content, Files.readAllBytes(java));
+        assertTrue(Files.isExecutable(java));
+        assertEquals(modTime, Files.getLastModifiedTime(java).toMillis());
+        assertEquals(modTime, Files.getLastModifiedTime(java.getParent()).toMillis());
+    }
+}